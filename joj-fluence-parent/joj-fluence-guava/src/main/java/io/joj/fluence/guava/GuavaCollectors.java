@@ -1,5 +1,13 @@
 package io.joj.fluence.guava;
 
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collector;
 import java.util.stream.Collector.Characteristics;
@@ -8,6 +16,9 @@ import java.util.stream.Collectors;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Maps;
 
 /**
  * {@link Collector}-s for Guava types.
@@ -73,4 +84,112 @@ public class GuavaCollectors {
 				ImmutableMap.Builder::build,
 				Characteristics.UNORDERED);
 	}
+
+	/**
+	 * Returns a {@code Collector} that accumulates the input elements into an {@code ImmutableSortedSet}, ordered by
+	 * the {@code comparator}. Of the elements considered equal by the {@code comparator}, only the first one is kept.
+	 * <p>
+	 * Elements are only appended while collecting; they are sorted in parallel when the result is built. Guava then
+	 * copies them into the result, re-checking the order, which is linear for sorted input.
+	 *
+	 * @param <T>
+	 *            the type of the input elements
+	 */
+	public static <T> Collector<T, ?, ImmutableSortedSet<T>> toImmutableSortedSet(Comparator<? super T> comparator) {
+		return toImmutableSortedSetImpl(comparator);
+	}
+
+	@VisibleForTesting
+	static <T> Collector<T, List<T>, ImmutableSortedSet<T>> toImmutableSortedSetImpl(
+			Comparator<? super T> comparator) {
+
+		requireNonNull(comparator, "comparator is null");
+		return Collector.<T, List<T>, ImmutableSortedSet<T>> of(
+				ArrayList::new,
+				(list, element) -> list.add(requireNonNull(element, "element is null")),
+				GuavaCollectors::appendAll,
+				list -> {
+					@SuppressWarnings("unchecked")
+					T[] elements = (T[]) list.toArray();
+					Arrays.parallelSort(elements, comparator);
+					int size = 0;
+					for (T element : elements) {
+						if (size == 0 || comparator.compare(elements[size - 1], element) != 0) {
+							elements[size++] = element;
+						}
+					}
+					// Guava 19 cannot wrap an array; copying already sorted, distinct elements is linear
+					return ImmutableSortedSet.copyOf(comparator, Arrays.asList(elements).subList(0, size));
+				});
+	}
+
+	/**
+	 * Returns a {@code Collector} that accumulates elements into an {@code ImmutableSortedMap} whose keys, ordered by
+	 * the {@code comparator}, and values are the result of applying the provided mapping functions to the input
+	 * elements.
+	 * <p>
+	 * Elements are only appended while collecting; they are sorted in parallel when the result is built. Guava then
+	 * copies them into the result, re-checking the order, which is linear for sorted input.
+	 * <p>
+	 * If the mapped keys contain duplicates (according to the {@code comparator}), an {@code IllegalStateException} is
+	 * thrown when the collection operation is performed.
+	 *
+	 * @param <T>
+	 *            the type of the input elements
+	 * @param <K>
+	 *            the type of the keys in the produced map
+	 * @param <V>
+	 *            the type of the values in the produced map
+	 */
+	public static <T, K, V> Collector<T, ?, ImmutableSortedMap<K, V>> toImmutableSortedMap(
+			Comparator<? super K> comparator,
+			Function<? super T, ? extends K> keyMapper,
+			Function<? super T, ? extends V> valueMapper) {
+
+		return toImmutableSortedMapImpl(comparator, keyMapper, valueMapper);
+	}
+
+	@VisibleForTesting
+	static <T, K, V> Collector<T, List<Map.Entry<K, V>>, ImmutableSortedMap<K, V>> toImmutableSortedMapImpl(
+			Comparator<? super K> comparator,
+			Function<? super T, ? extends K> keyMapper,
+			Function<? super T, ? extends V> valueMapper) {
+
+		requireNonNull(comparator, "comparator is null");
+		requireNonNull(keyMapper, "keyMapper is null");
+		requireNonNull(valueMapper, "valueMapper is null");
+		Comparator<Map.Entry<K, V>> entryComparator = (e1, e2) -> comparator.compare(e1.getKey(), e2.getKey());
+
+		return Collector.<T, List<Map.Entry<K, V>>, ImmutableSortedMap<K, V>> of(
+				ArrayList::new,
+				(list, element) -> {
+					requireNonNull(element, "element is null");
+					list.add(Maps.immutableEntry(
+							requireNonNull(keyMapper.apply(element), "key is null"),
+							requireNonNull(valueMapper.apply(element), "value is null")));
+				},
+				GuavaCollectors::appendAll,
+				list -> {
+					@SuppressWarnings("unchecked")
+					Map.Entry<K, V>[] entries = list.toArray((Map.Entry<K, V>[]) new Map.Entry<?, ?>[list.size()]);
+					Arrays.parallelSort(entries, entryComparator);
+					for (int i = 1; i < entries.length; i++) {
+						if (entryComparator.compare(entries[i - 1], entries[i]) == 0) {
+							throw new IllegalStateException(format("Duplicate key: %s", entries[i].getKey()));
+						}
+					}
+					// Guava 19 cannot wrap an array; building from already sorted, distinct entries is linear
+					ImmutableSortedMap.Builder<K, V> builder = new ImmutableSortedMap.Builder<>(comparator);
+					for (Map.Entry<K, V> entry : entries) {
+						builder.put(entry);
+					}
+					return builder.build();
+				},
+				Characteristics.UNORDERED);
+	}
+
+	private static <T> List<T> appendAll(List<T> list1, List<T> list2) {
+		list1.addAll(list2);
+		return list1;
+	}
 }
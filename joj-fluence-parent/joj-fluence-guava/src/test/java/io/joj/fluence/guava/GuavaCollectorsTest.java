@@ -8,7 +8,9 @@ import static java.util.Collections.singletonMap;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotSame;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -29,6 +31,8 @@ import org.testng.annotations.Test;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
 
 /**
  * @author findepi
@@ -229,6 +233,122 @@ public class GuavaCollectorsTest {
 				.hasMessageStartingWith("Multiple entries with same key");
 	}
 
+	@Test
+	public void testToImmutableSortedSet() {
+		// Given
+		List<Long> inputList = newRandomList(10_000);
+
+		// When
+		ImmutableSortedSet<Long> collected = inputList.parallelStream()
+				.collect(GuavaCollectors.toImmutableSortedSet(Comparator.reverseOrder()));
+
+		// Then
+		assertEquals(collected, ImmutableSortedSet.copyOf(Comparator.reverseOrder(), inputList));
+		assertEquals(collected.comparator(), Comparator.reverseOrder(), "comparator");
+	}
+
+	@Test
+	public void testToImmutableSortedSetKeepsFirstOfEqualElements() {
+		// Given
+		List<String> inputList = asList("bb", "a", "cc", "b", "c", "aa");
+
+		// When
+		ImmutableSortedSet<String> collected = inputList.stream()
+				.collect(GuavaCollectors.toImmutableSortedSet(Comparator.comparing(s -> s.charAt(0))));
+
+		// Then
+		assertEquals(ImmutableList.copyOf(collected), asList("a", "bb", "cc"));
+	}
+
+	@Test
+	public void testToImmutableSortedSetCombineResults() {
+		// Given
+		Collector<Object, List<Object>, ImmutableSortedSet<Object>> collector = GuavaCollectors
+				.toImmutableSortedSetImpl(Comparator.comparing(Object::toString));
+
+		List<Object> firstPartialResult = new ArrayList<>(asList(3, 1));
+		List<Object> secondPartialResult = new ArrayList<>(asList(2, 1));
+
+		// When
+		List<Object> combined = collector.combiner().apply(firstPartialResult, secondPartialResult);
+
+		// Then
+		assertEquals(combined, asList(3, 1, 2, 1), "partial results should only be appended");
+		assertEquals(ImmutableList.copyOf(collector.finisher().apply(combined)), asList(1, 2, 3));
+	}
+
+	@Test
+	public void testToImmutableSortedSetRejectNullEarly() {
+		// Given
+		Collector<Object, List<Object>, ImmutableSortedSet<Object>> collector = GuavaCollectors
+				.toImmutableSortedSetImpl(Comparator.comparing(Object::toString));
+
+		// When
+		BiConsumer<List<Object>, Object> accumulator = collector.accumulator();
+		List<Object> resultContainer = collector.supplier().get();
+
+		Assertions.assertThatThrownBy(() -> {
+			accumulator.accept(resultContainer, null);
+		})
+				// Then
+				.isInstanceOf(NullPointerException.class);
+	}
+
+	@Test
+	public void testToImmutableSortedMap() {
+		// Given
+		List<Long> inputList = newRandomList(10_000).stream()
+				.distinct()
+				.collect(Collectors.toList());
+
+		// When
+		ImmutableSortedMap<Long, String> collected = inputList.parallelStream()
+				.collect(GuavaCollectors.toImmutableSortedMap(Comparator.<Long> reverseOrder(), Function.identity(),
+						String::valueOf));
+
+		// Then
+		assertEquals(collected, inputList.stream().collect(Collectors.toMap(Function.identity(), String::valueOf)));
+		assertEquals(ImmutableList.copyOf(collected.keySet()),
+				ImmutableSortedSet.copyOf(Comparator.reverseOrder(), inputList).asList());
+	}
+
+	@Test(dataProvider = "testToImmutableMapRejectNullEarlyDataProvider")
+	public void testToImmutableSortedMapRejectNullEarly(String input, Function<String, Integer> keyMapper,
+			Function<String, String> valueMapper) {
+
+		// Given
+		Collector<String, List<Map.Entry<Integer, Object>>, ImmutableSortedMap<Integer, Object>> collector = GuavaCollectors
+				.toImmutableSortedMapImpl(Comparator.naturalOrder(), keyMapper, valueMapper);
+
+		// When
+		BiConsumer<List<Map.Entry<Integer, Object>>, String> accumulator = collector.accumulator();
+		List<Map.Entry<Integer, Object>> resultContainer = collector.supplier().get();
+
+		Assertions.assertThatThrownBy(() -> {
+			accumulator.accept(resultContainer, input);
+		})
+				// Then
+				.isInstanceOf(NullPointerException.class);
+	}
+
+	@Test
+	public void testToImmutableSortedMapRejectDuplicates() {
+		// Given
+		Collection<Integer> collection = asList(1, 2, 3);
+		// When
+		Assertions.assertThatThrownBy(() -> {
+			collection.stream()
+					.collect(GuavaCollectors.toImmutableSortedMap(
+							Comparator.naturalOrder(),
+							// Produces same key for inputs 1, 3
+							i -> i % 2,
+							Function.identity()));
+		})
+				// Then
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessage("Duplicate key: 1");
+	}
+
 	private List<Long> newRandomList(int size) {
 		Random r = ThreadLocalRandom.current();
 		List<Long> inputList = LongStream.range(0, size)
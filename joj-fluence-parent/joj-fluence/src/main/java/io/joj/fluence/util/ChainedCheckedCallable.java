@@ -0,0 +1,49 @@
+package io.joj.fluence.util;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link CheckedCallable} whose result is passed through a {@link CheckedFunction}.
+ * <p>
+ * Mapping a chained callable with {@link #map(CheckedFunction)} composes the function with
+ * {@link ChainedCheckedFunction#compose(CheckedFunction, CheckedFunction)} instead of wrapping the callable, so long
+ * mapping chains are flattened.
+ */
+final class ChainedCheckedCallable<S, T, E extends Exception> implements CheckedCallable<T, E> {
+
+	private final CheckedCallable<S, ? extends E> source;
+	private final CheckedFunction<S, T, ? extends E> mapping;
+
+	private ChainedCheckedCallable(CheckedCallable<S, ? extends E> source, CheckedFunction<S, T, ? extends E> mapping) {
+		this.source = source;
+		this.mapping = mapping;
+	}
+
+	/**
+	 * Returns a callable that first calls {@code source} and then applies {@code func} to the result.
+	 */
+	static <S, T, E extends Exception> ChainedCheckedCallable<S, T, E> of(
+			CheckedCallable<S, ? extends E> source,
+			CheckedFunction<S, T, ? extends E> func) {
+
+		requireNonNull(source);
+		requireNonNull(func);
+		return new ChainedCheckedCallable<>(source, func);
+	}
+
+	@Override
+	public T call() throws E {
+		return mapping.apply(source.call());
+	}
+
+	@Override
+	public <R> CheckedCallable<R, E> map(CheckedFunction<T, R, ? extends E> func) {
+		return of(source, ChainedCheckedFunction.<S, T, R, E> compose(mapping, func));
+	}
+
+	@Override
+	public String toString() {
+		return format("%s(%s, %s)", getClass().getSimpleName(), source, mapping);
+	}
+}
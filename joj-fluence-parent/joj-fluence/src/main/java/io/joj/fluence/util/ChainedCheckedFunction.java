@@ -0,0 +1,162 @@
+package io.joj.fluence.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link CheckedFunction} composed of a flat array of stages, applied one after another in a single loop.
+ * <p>
+ * Short compositions are plain nested calls, which the JIT inlines well. Once a composition exceeds
+ * {@link #MAX_NESTED_STAGES} stages, it is flattened into a chain, which keeps the call depth constant regardless of
+ * chain length. Appending to a chain with {@link #thenApply(CheckedFunction)} reuses its array when possible, so
+ * building a chain one stage at a time costs amortized {@code O(1)} per stage. Prepending with
+ * {@link #combine(CheckedFunction)} copies the stages.
+ */
+final class ChainedCheckedFunction<T, R, E extends Exception> implements CheckedFunction<T, R, E> {
+
+	/**
+	 * Compositions of up to this many stages are nested rather than flattened.
+	 */
+	static final int MAX_NESTED_STAGES = 16;
+
+	// Stages throw only E, as guaranteed by the signatures of the composing methods
+	private final CheckedFunction<?, ?, ?>[] stages;
+	private final int length;
+	/**
+	 * Length of {@link #stages} used by any chain sharing the array; only a chain using the whole of it can append in
+	 * place.
+	 */
+	private final AtomicInteger usedLength;
+
+	private ChainedCheckedFunction(CheckedFunction<?, ?, ?>[] stages, int length, AtomicInteger usedLength) {
+		this.stages = stages;
+		this.length = length;
+		this.usedLength = usedLength;
+	}
+
+	/**
+	 * Returns a function that first applies {@code first} and then {@code second}.
+	 */
+	static <T, M, R, E extends Exception> CheckedFunction<T, R, E> compose(
+			CheckedFunction<T, M, ? extends E> first,
+			CheckedFunction<M, R, ? extends E> second) {
+
+		requireNonNull(first);
+		requireNonNull(second);
+		int stageCount = stageCount(first) + stageCount(second);
+		if (stageCount <= MAX_NESTED_STAGES) {
+			return new NestedCheckedFunction<>(first, second, stageCount);
+		}
+		if (first instanceof ChainedCheckedFunction) {
+			return append((ChainedCheckedFunction<?, ?, ?>) first, second);
+		}
+		List<CheckedFunction<?, ?, ?>> stages = new ArrayList<>(stageCount);
+		collectStages(first, stages);
+		collectStages(second, stages);
+		return newChain(stages, stageCount);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public R apply(T arg) throws E {
+		Object value = arg;
+		for (int i = 0; i < length; i++) {
+			value = ((CheckedFunction<Object, ?, E>) stages[i]).apply(value);
+		}
+		return (R) value;
+	}
+
+	@Override
+	public <M> CheckedFunction<M, R, E> combine(CheckedFunction<M, T, ? extends E> before) {
+		return compose(before, this);
+	}
+
+	@Override
+	public <M> CheckedFunction<T, M, E> thenApply(CheckedFunction<R, M, ? extends E> after) {
+		return compose(this, after);
+	}
+
+	private static <T, R, E extends Exception> ChainedCheckedFunction<T, R, E> append(
+			ChainedCheckedFunction<?, ?, ?> chain, CheckedFunction<?, ?, ?> after) {
+
+		CheckedFunction<?, ?, ?>[] stages = chain.stages;
+		int length = chain.length;
+		List<CheckedFunction<?, ?, ?>> extra = new ArrayList<>();
+		collectStages(after, extra);
+		int newLength = length + extra.size();
+		if (newLength <= stages.length && chain.usedLength.compareAndSet(length, newLength)) {
+			// No other chain uses stages past length; chains sharing the array never read past their own length
+			for (int i = 0; i < extra.size(); i++) {
+				stages[length + i] = extra.get(i);
+			}
+			return new ChainedCheckedFunction<>(stages, newLength, chain.usedLength);
+		}
+		List<CheckedFunction<?, ?, ?>> all = new ArrayList<>(newLength);
+		for (int i = 0; i < length; i++) {
+			all.add(stages[i]);
+		}
+		all.addAll(extra);
+		return newChain(all, Math.max(newLength, 2 * length));
+	}
+
+	private static <T, R, E extends Exception> ChainedCheckedFunction<T, R, E> newChain(
+			List<CheckedFunction<?, ?, ?>> stages, int capacity) {
+
+		CheckedFunction<?, ?, ?>[] array = new CheckedFunction<?, ?, ?>[Math.max(capacity, stages.size())];
+		stages.toArray(array);
+		return new ChainedCheckedFunction<>(array, stages.size(), new AtomicInteger(stages.size()));
+	}
+
+	private static int stageCount(CheckedFunction<?, ?, ?> function) {
+		if (function instanceof ChainedCheckedFunction) {
+			return ((ChainedCheckedFunction<?, ?, ?>) function).length;
+		}
+		if (function instanceof NestedCheckedFunction) {
+			return ((NestedCheckedFunction<?, ?, ?, ?>) function).stageCount;
+		}
+		return 1;
+	}
+
+	private static void collectStages(CheckedFunction<?, ?, ?> function, List<CheckedFunction<?, ?, ?>> stages) {
+		if (function instanceof ChainedCheckedFunction) {
+			ChainedCheckedFunction<?, ?, ?> chain = (ChainedCheckedFunction<?, ?, ?>) function;
+			for (int i = 0; i < chain.length; i++) {
+				stages.add(chain.stages[i]);
+			}
+		} else if (function instanceof NestedCheckedFunction) {
+			// Nesting depth is bounded by MAX_NESTED_STAGES
+			NestedCheckedFunction<?, ?, ?, ?> nested = (NestedCheckedFunction<?, ?, ?, ?>) function;
+			collectStages(nested.first, stages);
+			collectStages(nested.second, stages);
+		} else {
+			stages.add(function);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return format("%s(%d stages)", getClass().getSimpleName(), length);
+	}
+
+	private static final class NestedCheckedFunction<T, M, R, E extends Exception> implements CheckedFunction<T, R, E> {
+		private final CheckedFunction<T, M, ? extends E> first;
+		private final CheckedFunction<M, R, ? extends E> second;
+		private final int stageCount;
+
+		NestedCheckedFunction(CheckedFunction<T, M, ? extends E> first, CheckedFunction<M, R, ? extends E> second,
+				int stageCount) {
+			this.first = first;
+			this.second = second;
+			this.stageCount = stageCount;
+		}
+
+		@Override
+		public R apply(T arg) throws E {
+			return second.apply(first.apply(arg));
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package io.joj.fluence.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link CheckedRunnable} composed of a flat array of runnables, run one after another in a single loop.
+ * <p>
+ * Like {@link ChainedCheckedFunction}, short compositions are plain nested calls and only compositions of more than
+ * {@link ChainedCheckedFunction#MAX_NESTED_STAGES} runnables are flattened. Appending to a chain with
+ * {@link #thenRun(CheckedRunnable)} reuses its array when possible, so building a chain one runnable at a time costs
+ * amortized {@code O(1)} per runnable.
+ */
+final class ChainedCheckedRunnable<E extends Exception> implements CheckedRunnable<E> {
+
+	// Runnables throw only E, as guaranteed by the signatures of the composing methods
+	private final CheckedRunnable<?>[] stages;
+	private final int length;
+	/**
+	 * Length of {@link #stages} used by any chain sharing the array; only a chain using the whole of it can append in
+	 * place.
+	 */
+	private final AtomicInteger usedLength;
+
+	private ChainedCheckedRunnable(CheckedRunnable<?>[] stages, int length, AtomicInteger usedLength) {
+		this.stages = stages;
+		this.length = length;
+		this.usedLength = usedLength;
+	}
+
+	/**
+	 * Returns a runnable that first runs {@code first} and then runs {@code second}.
+	 */
+	static <E extends Exception> CheckedRunnable<E> compose(CheckedRunnable<? extends E> first,
+			CheckedRunnable<? extends E> second) {
+
+		requireNonNull(first);
+		requireNonNull(second);
+		int stageCount = stageCount(first) + stageCount(second);
+		if (stageCount <= ChainedCheckedFunction.MAX_NESTED_STAGES) {
+			return new NestedCheckedRunnable<>(first, second, stageCount);
+		}
+		if (first instanceof ChainedCheckedRunnable) {
+			return append((ChainedCheckedRunnable<?>) first, second);
+		}
+		List<CheckedRunnable<?>> stages = new ArrayList<>(stageCount);
+		collectStages(first, stages);
+		collectStages(second, stages);
+		return newChain(stages, stageCount);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void run() throws E {
+		for (int i = 0; i < length; i++) {
+			((CheckedRunnable<E>) stages[i]).run();
+		}
+	}
+
+	@Override
+	public CheckedRunnable<E> thenRun(CheckedRunnable<E> after) {
+		return compose(this, after);
+	}
+
+	private static <E extends Exception> ChainedCheckedRunnable<E> append(ChainedCheckedRunnable<?> chain,
+			CheckedRunnable<?> after) {
+
+		CheckedRunnable<?>[] stages = chain.stages;
+		int length = chain.length;
+		List<CheckedRunnable<?>> extra = new ArrayList<>();
+		collectStages(after, extra);
+		int newLength = length + extra.size();
+		if (newLength <= stages.length && chain.usedLength.compareAndSet(length, newLength)) {
+			// No other chain uses stages past length; chains sharing the array never read past their own length
+			for (int i = 0; i < extra.size(); i++) {
+				stages[length + i] = extra.get(i);
+			}
+			return new ChainedCheckedRunnable<>(stages, newLength, chain.usedLength);
+		}
+		List<CheckedRunnable<?>> all = new ArrayList<>(newLength);
+		for (int i = 0; i < length; i++) {
+			all.add(stages[i]);
+		}
+		all.addAll(extra);
+		return newChain(all, Math.max(newLength, 2 * length));
+	}
+
+	private static <E extends Exception> ChainedCheckedRunnable<E> newChain(List<CheckedRunnable<?>> stages,
+			int capacity) {
+
+		CheckedRunnable<?>[] array = new CheckedRunnable<?>[Math.max(capacity, stages.size())];
+		stages.toArray(array);
+		return new ChainedCheckedRunnable<>(array, stages.size(), new AtomicInteger(stages.size()));
+	}
+
+	private static int stageCount(CheckedRunnable<?> runnable) {
+		if (runnable instanceof ChainedCheckedRunnable) {
+			return ((ChainedCheckedRunnable<?>) runnable).length;
+		}
+		if (runnable instanceof NestedCheckedRunnable) {
+			return ((NestedCheckedRunnable<?>) runnable).stageCount;
+		}
+		return 1;
+	}
+
+	private static void collectStages(CheckedRunnable<?> runnable, List<CheckedRunnable<?>> stages) {
+		if (runnable instanceof ChainedCheckedRunnable) {
+			ChainedCheckedRunnable<?> chain = (ChainedCheckedRunnable<?>) runnable;
+			for (int i = 0; i < chain.length; i++) {
+				stages.add(chain.stages[i]);
+			}
+		} else if (runnable instanceof NestedCheckedRunnable) {
+			// Nesting depth is bounded by MAX_NESTED_STAGES
+			NestedCheckedRunnable<?> nested = (NestedCheckedRunnable<?>) runnable;
+			collectStages(nested.first, stages);
+			collectStages(nested.second, stages);
+		} else {
+			stages.add(runnable);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return format("%s(%d stages)", getClass().getSimpleName(), length);
+	}
+
+	private static final class NestedCheckedRunnable<E extends Exception> implements CheckedRunnable<E> {
+		private final CheckedRunnable<? extends E> first;
+		private final CheckedRunnable<? extends E> second;
+		private final int stageCount;
+
+		NestedCheckedRunnable(CheckedRunnable<? extends E> first, CheckedRunnable<? extends E> second,
+				int stageCount) {
+			this.first = first;
+			this.second = second;
+			this.stageCount = stageCount;
+		}
+
+		@Override
+		public void run() throws E {
+			first.run();
+			second.run();
+		}
+	}
+}
@@ -22,8 +22,13 @@ public interface CheckedCallable<T, E extends Exception> {
 	 */
 	T call() throws E;
 
+	/**
+	 * Returns a {@link CheckedCallable} that applies {@code func} to the result of {@code this}.
+	 * <p>
+	 * Long chains of mappings are flattened, so mapping many times does not increase the call depth.
+	 */
 	default <R> CheckedCallable<R, E> map(CheckedFunction<T, R, ? extends E> func) {
 		requireNonNull(func);
-		return () -> func.apply(this.call());
+		return ChainedCheckedCallable.of(this, func);
 	}
 }
@@ -22,17 +22,21 @@ public interface CheckedFunction<T, R, E extends Exception> {
 
 	/**
 	 * Returns a composed function that first applies {@code before} and then {@code this}.
+	 * <p>
+	 * Long compositions are flattened, so composing many functions does not increase the call depth.
 	 */
 	default <M> CheckedFunction<M, R, E> combine(CheckedFunction<M, T, ? extends E> before) {
 		requireNonNull(before);
-		return t -> this.apply(before.apply(t));
+		return ChainedCheckedFunction.compose(before, this);
 	}
 
 	/**
 	 * Returns a composed function that first applies {@code this} and then {@code after}.
+	 * <p>
+	 * Long compositions are flattened, so composing many functions does not increase the call depth.
 	 */
 	default <M> CheckedFunction<T, M, E> thenApply(CheckedFunction<R, M, ? extends E> after) {
 		requireNonNull(after);
-		return t -> after.apply(this.apply(t));
+		return ChainedCheckedFunction.compose(this, after);
 	}
 }
@@ -25,12 +25,11 @@ public interface CheckedRunnable<E extends Exception> {
 
 	/**
 	 * Returns a {@link CheckedRunnable} that first runs {@code this} and then runs {@code after}.
+	 * <p>
+	 * Long compositions are flattened, so composing many runnables does not increase the call depth.
 	 */
 	default CheckedRunnable<E> thenRun(CheckedRunnable<E> after) {
 		requireNonNull(after);
-		return () -> {
-			this.run();
-			after.run();
-		};
+		return ChainedCheckedRunnable.compose(this, after);
 	}
 }
\ No newline at end of file
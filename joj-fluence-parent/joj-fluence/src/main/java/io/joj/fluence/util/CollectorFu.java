@@ -4,6 +4,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.stream.Collector;
@@ -80,4 +81,51 @@ public class CollectorFu {
 							.collect(Collectors.toList());
 				});
 	}
+
+	/**
+	 * Returns a {@code Collector} that works like {@link #indexingBy(Function)}, but canonicalizes the keys through
+	 * {@code keyPool}. A map already holds one instance per distinct key, so this pays off when {@code keyPool} is
+	 * shared, e.g. by many maps built from the same key space, which then share their key instances.
+	 */
+	public static <T, K> Collector<T, ?, Map<K, List<T>>> indexingBy(Function<? super T, ? extends K> keyFunction,
+			InternPool<K> keyPool) {
+
+		requireNonNull(keyFunction, "keyFunction is null");
+		requireNonNull(keyPool, "keyPool is null");
+		return indexingBy(el -> keyPool.intern(keyFunction.apply(el)));
+	}
+
+	/**
+	 * Returns a {@code Collector} that canonicalizes input elements through {@code pool} before passing them to
+	 * {@code downstream}, so that equal elements share one instance, e.g.
+	 * {@code interning(pool, indexingBy(keyFunction))} canonicalizes the indexed elements.
+	 * <p>
+	 * To canonicalize only some fields of the input elements, map them with {@link Collectors#mapping(Function,
+	 * Collector)} to copies built with the fields interned.
+	 * <p>
+	 * Returned {@link Collector} does not support {@code null} input elements.
+	 */
+	public static <T, A, R> Collector<T, A, R> interning(InternPool<T> pool, Collector<? super T, A, R> downstream) {
+		requireNonNull(pool, "pool is null");
+		requireNonNull(downstream, "downstream is null");
+
+		BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+		return Collector.of(
+				downstream.supplier(),
+				(container, el) -> downstreamAccumulator.accept(container, pool.intern(el)),
+				downstream.combiner(),
+				downstream.finisher(),
+				downstream.characteristics().toArray(new Collector.Characteristics[0]));
+	}
+
+	/**
+	 * Returns a {@code Collector} that works like {@code collector}, but records number of calls and time spent in
+	 * each of its phases in {@code profile}.
+	 *
+	 * @see CollectorScalability
+	 */
+	public static <T, A, R> Collector<T, ?, R> profiling(Collector<T, A, R> collector, CollectorProfile profile) {
+		requireNonNull(profile, "profile is null");
+		return profile.profile(collector);
+	}
 }
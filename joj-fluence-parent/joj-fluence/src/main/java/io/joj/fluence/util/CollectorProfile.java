@@ -0,0 +1,235 @@
+package io.joj.fluence.util;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Statistics of {@link Collector} phases gathered by a collector returned from
+ * {@link CollectorFu#profiling(Collector, CollectorProfile)}: number of calls and time spent in the supplier, the
+ * accumulator, the combiner and the finisher, depth of the combine tree and sizes of intermediate containers.
+ * <p>
+ * Accumulated elements are counted in the container they are accumulated into, and the counts are added to the
+ * statistics when the container is combined or finished. Only one in {@value #ACCUMULATOR_SAMPLING_INTERVAL} calls to
+ * the accumulator is timed with {@link System#nanoTime()}, and {@link #accumulatorNanos()} is estimated from the timed
+ * calls, so profiling adds little to the cost of accumulating an element. Accumulation into a
+ * {@link Collector.Characteristics#CONCURRENT} container is counted with a {@link LongAdder} instead, since the
+ * container is shared by threads.
+ * <p>
+ * Calls to the supplier, the combiner and the finisher are each timed.
+ */
+public final class CollectorProfile {
+
+	static final int ACCUMULATOR_SAMPLING_INTERVAL = 32;
+
+	private final LongAdder supplierCalls = new LongAdder();
+	private final LongAdder supplierNanos = new LongAdder();
+	private final LongAdder accumulatorCalls = new LongAdder();
+	private final LongAdder accumulatorSampledCalls = new LongAdder();
+	private final LongAdder accumulatorSampledNanos = new LongAdder();
+	private final LongAdder combinerCalls = new LongAdder();
+	private final LongAdder combinerNanos = new LongAdder();
+	private final LongAdder finisherCalls = new LongAdder();
+	private final LongAdder finisherNanos = new LongAdder();
+	private final LongAccumulator maxCombineDepth = new LongAccumulator(Math::max, 0);
+	private final LongAccumulator maxCombinedContainerSize = new LongAccumulator(Math::max, 0);
+
+	public long supplierCalls() {
+		return supplierCalls.sum();
+	}
+
+	public long supplierNanos() {
+		return supplierNanos.sum();
+	}
+
+	public long accumulatorCalls() {
+		return accumulatorCalls.sum();
+	}
+
+	/**
+	 * Returns estimated time spent in the accumulator, extrapolated from the timed calls.
+	 */
+	public long accumulatorNanos() {
+		long sampledCalls = accumulatorSampledCalls.sum();
+		if (sampledCalls == 0) {
+			return 0;
+		}
+		return Math.round((double) accumulatorSampledNanos.sum() * accumulatorCalls.sum() / sampledCalls);
+	}
+
+	public long combinerCalls() {
+		return combinerCalls.sum();
+	}
+
+	public long combinerNanos() {
+		return combinerNanos.sum();
+	}
+
+	public long finisherCalls() {
+		return finisherCalls.sum();
+	}
+
+	public long finisherNanos() {
+		return finisherNanos.sum();
+	}
+
+	/**
+	 * Returns depth of the deepest combine tree, i.e. {@code 0} if the combiner was never called.
+	 */
+	public long maxCombineDepth() {
+		return maxCombineDepth.get();
+	}
+
+	/**
+	 * Returns number of elements accumulated into the largest container passed to the combiner.
+	 */
+	public long maxCombinedContainerSize() {
+		return maxCombinedContainerSize.get();
+	}
+
+	/**
+	 * Returns average number of elements accumulated into a container, i.e. number of elements per supplier call.
+	 */
+	public double averageContainerSize() {
+		long containers = supplierCalls.sum();
+		return containers == 0 ? 0 : (double) accumulatorCalls.sum() / containers;
+	}
+
+	/**
+	 * Resets all the statistics.
+	 */
+	public void reset() {
+		supplierCalls.reset();
+		supplierNanos.reset();
+		accumulatorCalls.reset();
+		accumulatorSampledCalls.reset();
+		accumulatorSampledNanos.reset();
+		combinerCalls.reset();
+		combinerNanos.reset();
+		finisherCalls.reset();
+		finisherNanos.reset();
+		maxCombineDepth.reset();
+		maxCombinedContainerSize.reset();
+	}
+
+	<T, A, R> Collector<T, ?, R> profile(Collector<T, A, R> collector) {
+		requireNonNull(collector, "collector is null");
+
+		Supplier<A> supplier = collector.supplier();
+		BiConsumer<A, T> accumulator = collector.accumulator();
+		BinaryOperator<A> combiner = collector.combiner();
+		Function<A, R> finisher = collector.finisher();
+		Set<Collector.Characteristics> characteristics = collector.characteristics();
+
+		BiConsumer<Container<A>, T> profilingAccumulator;
+		if (characteristics.contains(Collector.Characteristics.CONCURRENT)) {
+			profilingAccumulator = (container, element) -> {
+				if (ThreadLocalRandom.current().nextInt(ACCUMULATOR_SAMPLING_INTERVAL) == 0) {
+					long start = System.nanoTime();
+					accumulator.accept(container.value, element);
+					accumulatorSampledNanos.add(System.nanoTime() - start);
+					accumulatorSampledCalls.increment();
+				} else {
+					accumulator.accept(container.value, element);
+				}
+				accumulatorCalls.increment();
+			};
+		} else {
+			profilingAccumulator = (container, element) -> {
+				if (container.accumulatedCalls++ % ACCUMULATOR_SAMPLING_INTERVAL == 0) {
+					long start = System.nanoTime();
+					accumulator.accept(container.value, element);
+					container.sampledNanos += System.nanoTime() - start;
+					container.sampledCalls++;
+				} else {
+					accumulator.accept(container.value, element);
+				}
+			};
+		}
+
+		return Collector.<T, Container<A>, R> of(
+				() -> {
+					long start = System.nanoTime();
+					Container<A> container = new Container<>(supplier.get());
+					supplierNanos.add(System.nanoTime() - start);
+					supplierCalls.increment();
+					return container;
+				},
+				profilingAccumulator,
+				(container1, container2) -> {
+					recordAccumulation(container1);
+					recordAccumulation(container2);
+					long start = System.nanoTime();
+					A combined = combiner.apply(container1.value, container2.value);
+					combinerNanos.add(System.nanoTime() - start);
+					combinerCalls.increment();
+					maxCombinedContainerSize.accumulate(Math.max(container1.size, container2.size));
+
+					Container<A> result = new Container<>(combined);
+					result.size = container1.size + container2.size;
+					result.depth = Math.max(container1.depth, container2.depth) + 1;
+					maxCombineDepth.accumulate(result.depth);
+					return result;
+				},
+				container -> {
+					recordAccumulation(container);
+					long start = System.nanoTime();
+					R result = finisher.apply(container.value);
+					finisherNanos.add(System.nanoTime() - start);
+					finisherCalls.increment();
+					return result;
+				},
+				characteristics.stream()
+						// container is wrapped, so the finisher is never an identity
+						.filter(c -> c != Collector.Characteristics.IDENTITY_FINISH)
+						.toArray(Collector.Characteristics[]::new));
+	}
+
+	private void recordAccumulation(Container<?> container) {
+		if (container.accumulatedCalls != 0) {
+			container.size += container.accumulatedCalls;
+			accumulatorCalls.add(container.accumulatedCalls);
+			accumulatorSampledCalls.add(container.sampledCalls);
+			accumulatorSampledNanos.add(container.sampledNanos);
+			container.accumulatedCalls = 0;
+			container.sampledCalls = 0;
+			container.sampledNanos = 0;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return format("%s(supplier=%s calls/%s ns, accumulator=%s calls/%s ns, combiner=%s calls/%s ns, " +
+						"finisher=%s calls/%s ns, maxCombineDepth=%s, maxCombinedContainerSize=%s)",
+				getClass().getSimpleName(),
+				supplierCalls(), supplierNanos(),
+				accumulatorCalls(), accumulatorNanos(),
+				combinerCalls(), combinerNanos(),
+				finisherCalls(), finisherNanos(),
+				maxCombineDepth(), maxCombinedContainerSize());
+	}
+
+	private static final class Container<A> {
+		private final A value;
+		// Not synchronized; CONCURRENT collectors share one container, never combine it and do not use the counters
+		private long size;
+		private int depth;
+		// Accumulation not yet added to size and to the profile
+		private long accumulatedCalls;
+		private long sampledCalls;
+		private long sampledNanos;
+
+		Container(A value) {
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,175 @@
+package io.joj.fluence.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Measures how a {@link Collector} scales with parallelism: collects a dataset with a parallel stream in
+ * {@link ForkJoinPool}s of parallelism {@code 1..maxParallelism} and reports the best time and speedup for each, along
+ * with a {@link CollectorProfile} showing where the time is spent.
+ * <p>
+ * Times are measured with the collector as given, after {@code iterations} untimed warm-up runs at every parallelism;
+ * timed runs interleave the parallelism levels. The profile is gathered in a separate, instrumented run, so its phase
+ * times include the profiling overhead and should be compared with each other rather than with the measured time.
+ * <p>
+ * This is a quick diagnostic tool, not a replacement for a proper benchmark harness. Compare collectors measured in
+ * the same JVM.
+ */
+public class CollectorScalability {
+	private CollectorScalability() {
+	}
+
+	/**
+	 * Measures {@code collector} over a synthetic dataset of {@code size} elements produced by {@code generator}.
+	 */
+	public static <T> List<Measurement> measure(Collector<? super T, ?, ?> collector, IntFunction<? extends T> generator,
+			int size, int maxParallelism, int iterations) {
+
+		requireNonNull(generator, "generator is null");
+		List<T> dataset = IntStream.range(0, size)
+				.mapToObj(generator)
+				.collect(Collectors.toList());
+		return measure(collector, dataset, maxParallelism, iterations);
+	}
+
+	/**
+	 * Measures {@code collector} over the {@code dataset}, running it {@code iterations} times for each parallelism,
+	 * after as many warm-up runs.
+	 */
+	public static <T> List<Measurement> measure(Collector<? super T, ?, ?> collector, List<? extends T> dataset,
+			int maxParallelism, int iterations) {
+
+		requireNonNull(collector, "collector is null");
+		requireNonNull(dataset, "dataset is null");
+		if (maxParallelism < 1) {
+			throw new IllegalArgumentException(format("maxParallelism must be positive: %s", maxParallelism));
+		}
+		if (iterations < 1) {
+			throw new IllegalArgumentException(format("iterations must be positive: %s", iterations));
+		}
+
+		List<ForkJoinPool> pools = new ArrayList<>();
+		try {
+			for (int parallelism = 1; parallelism <= maxParallelism; parallelism++) {
+				pools.add(new ForkJoinPool(parallelism));
+			}
+
+			for (int i = 0; i < iterations; i++) {
+				for (ForkJoinPool pool : pools) {
+					collect(pool, dataset, collector);
+				}
+			}
+
+			long[] bestNanos = new long[maxParallelism];
+			Arrays.fill(bestNanos, Long.MAX_VALUE);
+			for (int i = 0; i < iterations; i++) {
+				for (int p = 0; p < maxParallelism; p++) {
+					bestNanos[p] = Math.min(bestNanos[p], collect(pools.get(p), dataset, collector));
+				}
+			}
+
+			List<Measurement> measurements = new ArrayList<>();
+			for (int p = 0; p < maxParallelism; p++) {
+				CollectorProfile profile = new CollectorProfile();
+				collect(pools.get(p), dataset, CollectorFu.profiling(collector, profile));
+				measurements.add(new Measurement(p + 1, bestNanos[p], (double) bestNanos[0] / bestNanos[p], profile));
+			}
+			return Collections.unmodifiableList(measurements);
+		} finally {
+			pools.forEach(ForkJoinPool::shutdown);
+		}
+	}
+
+	/**
+	 * Formats {@code measurements} as a table, one line per parallelism.
+	 */
+	public static String report(List<Measurement> measurements) {
+		StringBuilder report = new StringBuilder(format("%11s %14s %8s %14s %14s %14s %14s %10s %12s%n",
+				"parallelism", "best ns", "speedup", "supplier ns", "accumulator ns", "combiner ns", "finisher ns",
+				"combines", "combineDepth"));
+		for (Measurement m : measurements) {
+			CollectorProfile profile = m.getProfile();
+			report.append(format("%11d %14d %8.2f %14d %14d %14d %14d %10d %12d%n",
+					m.getParallelism(), m.getNanos(), m.getSpeedup(),
+					profile.supplierNanos(), profile.accumulatorNanos(),
+					profile.combinerNanos(), profile.finisherNanos(),
+					profile.combinerCalls(), profile.maxCombineDepth()));
+		}
+		return report.toString();
+	}
+
+	private static <T> long collect(ForkJoinPool pool, List<? extends T> dataset, Collector<? super T, ?, ?> collector) {
+		try {
+			// Parallel stream started from within a pool runs its tasks in that pool
+			return pool.submit(() -> {
+				long start = System.nanoTime();
+				dataset.parallelStream().collect(collector);
+				return System.nanoTime() - start;
+			}).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Collection failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Result of measuring a {@link Collector} at a given parallelism.
+	 */
+	public static final class Measurement {
+		private final int parallelism;
+		private final long nanos;
+		private final double speedup;
+		private final CollectorProfile profile;
+
+		Measurement(int parallelism, long nanos, double speedup, CollectorProfile profile) {
+			this.parallelism = parallelism;
+			this.nanos = nanos;
+			this.speedup = speedup;
+			this.profile = profile;
+		}
+
+		public int getParallelism() {
+			return parallelism;
+		}
+
+		/**
+		 * Returns the best time of collecting the dataset.
+		 */
+		public long getNanos() {
+			return nanos;
+		}
+
+		/**
+		 * Returns the best time at parallelism {@code 1} divided by the best time at this parallelism.
+		 */
+		public double getSpeedup() {
+			return speedup;
+		}
+
+		/**
+		 * Returns profile of a separate, instrumented run.
+		 */
+		public CollectorProfile getProfile() {
+			return profile;
+		}
+
+		@Override
+		public String toString() {
+			return format("%s(parallelism=%s, nanos=%s, speedup=%.2f, profile=%s)", getClass().getSimpleName(),
+					parallelism, nanos, speedup, profile);
+		}
+	}
+}
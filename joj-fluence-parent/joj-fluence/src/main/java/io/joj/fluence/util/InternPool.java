@@ -0,0 +1,286 @@
+package io.joj.fluence.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A bounded, thread-safe pool of canonical instances. {@link #intern(Object)} returns an instance already in the pool
+ * that is equal to the given one, so that equal values collected from many sources share one instance on the heap.
+ * <p>
+ * When the pool is full, new values are returned as they are and not added to the pool. A pool created with
+ * {@link #weak(int)} does not prevent its instances from being garbage collected.
+ * <p>
+ * One pool can be shared by many collections, see {@link CollectorFu#interning(InternPool, Collector)},
+ * {@link CollectorFu#indexingBy(java.util.function.Function, InternPool)} for keys, or
+ * {@link Collectors#mapping(java.util.function.Function, Collector)} with {@code pool::intern}.
+ */
+public abstract class InternPool<T> {
+
+	private final int maximumSize;
+	private final AtomicInteger size = new AtomicInteger();
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+
+	private InternPool(int maximumSize) {
+		if (maximumSize < 0) {
+			throw new IllegalArgumentException(format("maximumSize cannot be negative: %s", maximumSize));
+		}
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * Returns a pool holding at most {@code maximumSize} instances, strongly referenced.
+	 */
+	public static <T> InternPool<T> bounded(int maximumSize) {
+		return new StrongInternPool<>(maximumSize);
+	}
+
+	/**
+	 * Returns a pool holding at most {@code maximumSize} instances, weakly referenced. Instances that were garbage
+	 * collected free their place in the pool.
+	 */
+	public static <T> InternPool<T> weak(int maximumSize) {
+		return new WeakInternPool<>(maximumSize);
+	}
+
+	/**
+	 * Returns the canonical instance equal to {@code value}, adding {@code value} to the pool if there is none and the
+	 * pool is not full.
+	 */
+	public final T intern(T value) {
+		requireNonNull(value, "value is null");
+		T canonical = lookup(value);
+		if (canonical != null) {
+			hitCount.increment();
+			return canonical;
+		}
+		missCount.increment();
+		return add(value);
+	}
+
+	/**
+	 * Returns number of {@link #intern(Object)} calls that returned an instance already in the pool.
+	 */
+	public long hitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * Returns number of {@link #intern(Object)} calls.
+	 */
+	public long requestCount() {
+		return hitCount.sum() + missCount.sum();
+	}
+
+	/**
+	 * Returns ratio of {@link #intern(Object)} calls that returned an instance already in the pool, or {@code 1.0} if
+	 * there were no calls.
+	 */
+	public double hitRatio() {
+		long hits = hitCount.sum();
+		long requests = hits + missCount.sum();
+		return requests == 0 ? 1.0 : (double) hits / requests;
+	}
+
+	/**
+	 * Returns number of instances in the pool.
+	 */
+	public int size() {
+		return size.get();
+	}
+
+	/**
+	 * @return instance in the pool equal to {@code value}, or {@code null}
+	 */
+	abstract T lookup(T value);
+
+	/**
+	 * @return {@code value}, or equal instance concurrently added to the pool
+	 */
+	abstract T add(T value);
+
+	/**
+	 * Reserves place for a new instance.
+	 *
+	 * @return {@code false} if the pool is full
+	 */
+	final boolean tryReserve() {
+		while (true) {
+			int current = size.get();
+			if (current >= maximumSize) {
+				return false;
+			}
+			if (size.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Releases place reserved with {@link #tryReserve()}.
+	 */
+	final void release() {
+		size.decrementAndGet();
+	}
+
+	@Override
+	public String toString() {
+		return format("%s(size=%s, maximumSize=%s, hitRatio=%s)", getClass().getSimpleName(), size(), maximumSize,
+				hitRatio());
+	}
+
+	private static final class StrongInternPool<T> extends InternPool<T> {
+		private final ConcurrentMap<T, T> pool = new ConcurrentHashMap<>();
+
+		StrongInternPool(int maximumSize) {
+			super(maximumSize);
+		}
+
+		@Override
+		T lookup(T value) {
+			return pool.get(value);
+		}
+
+		@Override
+		T add(T value) {
+			if (!tryReserve()) {
+				return value;
+			}
+			T existing = pool.putIfAbsent(value, value);
+			if (existing != null) {
+				release();
+				return existing;
+			}
+			return value;
+		}
+	}
+
+	private static final class WeakInternPool<T> extends InternPool<T> {
+		// Keys are WeakKeys; LookupKeys are used only to query
+		private final ConcurrentMap<Object, WeakKey<T>> pool = new ConcurrentHashMap<>();
+		private final ReferenceQueue<T> queue = new ReferenceQueue<>();
+
+		WeakInternPool(int maximumSize) {
+			super(maximumSize);
+		}
+
+		@Override
+		public int size() {
+			expungeStaleEntries();
+			return super.size();
+		}
+
+		@Override
+		T lookup(T value) {
+			WeakKey<T> key = pool.get(new LookupKey(value));
+			return key != null ? key.get() : null;
+		}
+
+		@Override
+		T add(T value) {
+			expungeStaleEntries();
+			if (!tryReserve()) {
+				return value;
+			}
+			WeakKey<T> key = new WeakKey<>(value, queue);
+			while (true) {
+				WeakKey<T> existingKey = pool.putIfAbsent(key, key);
+				if (existingKey == null) {
+					return value;
+				}
+				T existing = existingKey.get();
+				if (existing != null) {
+					release();
+					return existing;
+				}
+				// Collected meanwhile
+				remove(existingKey);
+			}
+		}
+
+		private void expungeStaleEntries() {
+			Reference<? extends T> reference;
+			while ((reference = queue.poll()) != null) {
+				remove(reference);
+			}
+		}
+
+		private void remove(Object key) {
+			// Stale key is only equal to itself
+			if (pool.remove(key, key)) {
+				release();
+			}
+		}
+	}
+
+	private static final class WeakKey<T> extends WeakReference<T> {
+		private final int hashCode;
+
+		WeakKey(T value, ReferenceQueue<T> queue) {
+			super(value, queue);
+			this.hashCode = value.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
+			}
+			Object value = get();
+			if (value == null) {
+				return false;
+			}
+			if (obj instanceof WeakKey) {
+				return value.equals(((WeakKey<?>) obj).get());
+			}
+			if (obj instanceof LookupKey) {
+				return value.equals(((LookupKey) obj).value);
+			}
+			return false;
+		}
+	}
+
+	private static final class LookupKey {
+		private final Object value;
+		private final int hashCode;
+
+		LookupKey(Object value) {
+			this.value = value;
+			this.hashCode = value.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
+			}
+			if (obj instanceof WeakKey) {
+				return value.equals(((WeakKey<?>) obj).get());
+			}
+			if (obj instanceof LookupKey) {
+				return value.equals(((LookupKey) obj).value);
+			}
+			return false;
+		}
+	}
+}
@@ -1,7 +1,21 @@
 package io.joj.fluence.util;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Optional;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import static java.lang.String.format;
@@ -32,6 +46,38 @@ public class SupplierFu {
 		return new MemoizingSupplier<>(supplier);
 	}
 
+	/**
+	 * Returns a <a href="https://en.wikipedia.org/wiki/Memoization"><em>memoizing</em></a> supplier that also persists
+	 * the memoized value in a file, so that it survives restarts.
+	 * <p>
+	 * The value is stored in {@code cacheDirectory} in a file named after {@code name}, together with the
+	 * {@code version}. On the first call to {@link Supplier#get()} the file is read (memory-mapped) and, if it exists
+	 * and was written with the same {@code version}, the stored value is returned without calling {@code supplier}.
+	 * Otherwise {@code supplier} is called and its result is written to the file. Change the {@code version} whenever
+	 * the stored value would no longer be valid, e.g. when its class or its inputs change.
+	 * <p>
+	 * The cache is best effort: if the file is missing, stale, unreadable, does not hold an instance of {@code type} or
+	 * cannot be written (e.g. because the value is not {@link Serializable}), the returned supplier behaves as if
+	 * returned by {@link #memoize(Supplier)}.
+	 * <p>
+	 * The file is read with Java serialization. Only classes from {@code java.*} packages and classes whose names are
+	 * accepted by {@code allowedClasses} are allowed to be deserialized, so {@code allowedClasses} must accept every
+	 * other class the value's serialized form refers to, e.g. element classes of a collection or the serialized forms
+	 * of a library's collections. A value referring to any other class is not read from the file. The
+	 * {@code cacheDirectory} should still be writable only by the process using it, since whoever can write there
+	 * controls the deserialized value.
+	 * <p>
+	 * The memory-mapped file stays mapped until the buffer is garbage collected. On Windows a mapped file cannot be
+	 * replaced, so a stale file may not be overwritten until a later start.
+	 * <p>
+	 * The returned supplier does not allow {@code null} values, i.e. if the {@code supplier} returns {@code null}, a
+	 * {@link NullPointerException} will be raised.
+	 */
+	public static <T> Supplier<T> memoizePersistently(Supplier<T> supplier, Class<? super T> type,
+			Predicate<String> allowedClasses, Path cacheDirectory, String name, String version) {
+		return memoize(new PersistingSupplier<>(supplier, type, allowedClasses, cacheDirectory, name, version));
+	}
+
 	private static final class MemoizingSupplier<T> implements Supplier<T>, Serializable {
 		private static final long serialVersionUID = -7346764451425702926L;
 
@@ -64,4 +110,152 @@ public class SupplierFu {
 			return format("%s(%s, memoized=%s)", getClass().getSimpleName(), delegate, value);
 		}
 	}
+
+	private static final class PersistingSupplier<T> implements Supplier<T> {
+		private final Supplier<T> delegate;
+		private final Class<? super T> type;
+		private final Predicate<String> allowedClasses;
+		private final Path file;
+		private final String version;
+
+		public PersistingSupplier(Supplier<T> supplier, Class<? super T> type, Predicate<String> allowedClasses,
+				Path cacheDirectory, String name, String version) {
+			super();
+			this.delegate = requireNonNull(supplier, "supplier cannot be null");
+			this.type = requireNonNull(type, "type cannot be null");
+			this.allowedClasses = requireNonNull(allowedClasses, "allowedClasses cannot be null");
+			requireNonNull(cacheDirectory, "cacheDirectory cannot be null");
+			requireNonNull(name, "name cannot be null");
+			if (name.isEmpty() || !cacheDirectory.resolve(name).getParent().equals(cacheDirectory)) {
+				throw new IllegalArgumentException(format("Invalid name: '%s'", name));
+			}
+			this.file = cacheDirectory.resolve(name + ".memo");
+			this.version = requireNonNull(version, "version cannot be null");
+		}
+
+		@Override
+		public T get() {
+			T value = load();
+			if (value != null) {
+				return value;
+			}
+			value = requireNonNull(delegate.get(), "delegate supplier returned null value");
+			store(value);
+			return value;
+		}
+
+		/**
+		 * @return stored value or {@code null} if there is no valid one
+		 */
+		@SuppressWarnings("unchecked")
+		private T load() {
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				try (ObjectInputStream in = new FilteringObjectInputStream(new ByteBufferInputStream(buffer),
+						allowedClasses)) {
+					if (!version.equals(in.readUTF())) {
+						return null;
+					}
+					Object value = in.readObject();
+					// Type arguments of T cannot be checked
+					return type.isInstance(value) ? (T) value : null;
+				}
+			} catch (IOException | ClassNotFoundException | RuntimeException e) {
+				// Missing, corrupted or incompatible file (or one larger than 2GB, which cannot be mapped)
+				return null;
+			}
+		}
+
+		private void store(T value) {
+			try {
+				Files.createDirectories(file.getParent());
+				Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+				try {
+					try (OutputStream fileOut = Files.newOutputStream(tempFile);
+							ObjectOutputStream out = new ObjectOutputStream(fileOut)) {
+						out.writeUTF(version);
+						out.writeObject(value);
+					}
+					Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				} finally {
+					Files.deleteIfExists(tempFile);
+				}
+			} catch (IOException | RuntimeException e) {
+				// Persisting is best effort, the value is still memoized in memory
+			}
+		}
+
+		@Override
+		public String toString() {
+			return format("%s(%s, file=%s, version=%s)", getClass().getSimpleName(), delegate, file, version);
+		}
+	}
+
+	/**
+	 * Restricts deserialization to classes from {@code java.*} packages and classes accepted by a predicate.
+	 */
+	private static final class FilteringObjectInputStream extends ObjectInputStream {
+		private final Predicate<String> allowedClasses;
+
+		public FilteringObjectInputStream(InputStream in, Predicate<String> allowedClasses) throws IOException {
+			super(in);
+			this.allowedClasses = allowedClasses;
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			String name = desc.getName();
+			// Array class names look like "[I" or "[[Ljava.lang.String;"
+			String elementName = name.replaceFirst("^\\[+", "");
+			boolean primitiveArray = !elementName.equals(name) && elementName.length() == 1;
+			if (!elementName.equals(name) && elementName.startsWith("L")) {
+				elementName = elementName.substring(1, elementName.length() - 1);
+			}
+			if (!primitiveArray && !isAllowed(elementName)) {
+				throw new InvalidClassException(name, "class not allowed to be deserialized");
+			}
+			return super.resolveClass(desc);
+		}
+
+		@Override
+		protected Class<?> resolveProxyClass(String[] interfaces) throws IOException {
+			throw new InvalidClassException("proxy classes not allowed to be deserialized");
+		}
+
+		private boolean isAllowed(String className) {
+			return className.startsWith("java.") || allowedClasses.test(className);
+		}
+	}
+
+	private static final class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		public ByteBufferInputStream(ByteBuffer buffer) {
+			super();
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) {
+			if (length == 0) {
+				return 0;
+			}
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			int count = Math.min(length, buffer.remaining());
+			buffer.get(bytes, offset, count);
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
 }
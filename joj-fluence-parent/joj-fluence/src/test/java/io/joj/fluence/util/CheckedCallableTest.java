@@ -0,0 +1,28 @@
+package io.joj.fluence.util;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+public class CheckedCallableTest {
+
+	@Test
+	public void testMap() throws Exception {
+		CheckedCallable<String, RuntimeException> callable = () -> "abc";
+		CheckedCallable<String, RuntimeException> mapped = callable
+				.map(String::length)
+				.map(i -> "x" + i);
+
+		assertEquals(mapped.call(), "x3", "result");
+	}
+
+	@Test
+	public void testLongMapChainDoesNotGrowStack() throws Exception {
+		CheckedCallable<Integer, RuntimeException> callable = () -> 0;
+		for (int i = 0; i < 10_000; i++) {
+			callable = callable.map(x -> x + 1);
+		}
+
+		assertEquals(callable.call(), (Integer) 10_000, "result");
+	}
+}
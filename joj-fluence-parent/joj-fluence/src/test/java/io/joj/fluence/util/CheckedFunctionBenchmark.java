@@ -0,0 +1,100 @@
+package io.joj.fluence.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares applying a {@link CheckedFunction} composed with {@link CheckedFunction#thenApply(CheckedFunction)} with
+ * applying the same stages composed by nesting lambdas, and measures the cost of building the composition.
+ * <p>
+ * Run with {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckedFunctionBenchmark {
+
+	@Param({ "2", "5", "20", "100" })
+	private int stages;
+
+	private CheckedFunction<Integer, Integer, RuntimeException> chained;
+	private CheckedFunction<Integer, Integer, RuntimeException> nested;
+	private Integer input = 42;
+
+	@Setup
+	public void setup() {
+		chained = stage(0);
+		nested = stage(0);
+		for (int i = 1; i < stages; i++) {
+			chained = chained.thenApply(stage(i));
+			nested = nest(nested, stage(i));
+		}
+	}
+
+	@Benchmark
+	public Integer chained() {
+		return chained.apply(input);
+	}
+
+	@Benchmark
+	public Integer nested() {
+		return nested.apply(input);
+	}
+
+	@Benchmark
+	public CheckedFunction<Integer, Integer, RuntimeException> build() {
+		CheckedFunction<Integer, Integer, RuntimeException> function = stage(0);
+		for (int i = 1; i < stages; i++) {
+			function = function.thenApply(stage(i));
+		}
+		return function;
+	}
+
+	/**
+	 * Distinct stage classes make the call sites megamorphic, as in real pipelines.
+	 */
+	private static CheckedFunction<Integer, Integer, RuntimeException> stage(int i) {
+		switch (i % 4) {
+		case 0:
+			return x -> x + 1;
+		case 1:
+			return x -> x * 3;
+		case 2:
+			return x -> x ^ 0x5bd1e995;
+		default:
+			return x -> x >>> 1;
+		}
+	}
+
+	/**
+	 * Composition as done by {@link CheckedFunction#thenApply(CheckedFunction)} before chains were flattened.
+	 */
+	private static <T, R, M, E extends Exception> CheckedFunction<T, M, E> nest(CheckedFunction<T, R, E> first,
+			CheckedFunction<R, M, ? extends E> after) {
+		return t -> after.apply(first.apply(t));
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(CheckedFunctionBenchmark.class.getSimpleName())
+				.build())
+				.run();
+	}
+}
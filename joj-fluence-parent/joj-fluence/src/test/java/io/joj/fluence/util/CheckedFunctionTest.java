@@ -0,0 +1,77 @@
+package io.joj.fluence.util;
+
+import org.assertj.core.api.Assertions;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static org.testng.Assert.assertEquals;
+
+public class CheckedFunctionTest {
+
+	@Test
+	public void testThenApply() throws Exception {
+		CheckedFunction<String, Integer, IOException> length = String::length;
+		CheckedFunction<String, String, IOException> composed = length
+				.thenApply(i -> i * 10)
+				.thenApply(i -> "x" + i);
+
+		assertEquals(composed.apply("abc"), "x30", "result");
+	}
+
+	@Test
+	public void testCombine() throws Exception {
+		CheckedFunction<Integer, String, IOException> describe = i -> "x" + i;
+		CheckedFunction<String, String, IOException> composed = describe
+				.combine((Integer i) -> i * 10)
+				.combine(String::length);
+
+		assertEquals(composed.apply("abc"), "x30", "result");
+	}
+
+	@Test
+	public void testComposingChains() throws Exception {
+		CheckedFunction<Integer, Integer, RuntimeException> addOne = i -> i + 1;
+		CheckedFunction<Integer, Integer, RuntimeException> first = addOne.thenApply(i -> i * 2);
+		CheckedFunction<Integer, Integer, RuntimeException> second = addOne.thenApply(i -> i * 3);
+
+		assertEquals(first.thenApply(second).apply(1), (Integer) 15, "first then second");
+		assertEquals(first.combine(second).apply(1), (Integer) 14, "second then first");
+	}
+
+	@Test
+	public void testBranchingFromLongChain() throws Exception {
+		CheckedFunction<Integer, Integer, RuntimeException> base = i -> i;
+		for (int i = 0; i < 100; i++) {
+			base = base.thenApply(x -> x + 1);
+		}
+		CheckedFunction<Integer, Integer, RuntimeException> doubled = base.thenApply(x -> x * 2);
+		CheckedFunction<Integer, Integer, RuntimeException> negated = base.thenApply(x -> -x);
+
+		assertEquals(doubled.apply(0), (Integer) 200, "first branch");
+		assertEquals(negated.apply(0), (Integer) (-100), "second branch");
+		assertEquals(base.apply(0), (Integer) 100, "base");
+	}
+
+	@Test
+	public void testThenApplyPropagatesException() {
+		CheckedFunction<String, String, IOException> composed = ((CheckedFunction<String, String, IOException>) s -> s)
+				.thenApply(s -> {
+					throw new IOException("failed on " + s);
+				});
+
+		Assertions.assertThatThrownBy(() -> composed.apply("abc"))
+				.isInstanceOf(IOException.class)
+				.hasMessage("failed on abc");
+	}
+
+	@Test
+	public void testLongChainDoesNotGrowStack() throws Exception {
+		CheckedFunction<Integer, Integer, RuntimeException> composed = i -> i;
+		for (int i = 0; i < 10_000; i++) {
+			composed = composed.thenApply(x -> x + 1);
+		}
+
+		assertEquals(composed.apply(0), (Integer) 10_000, "result");
+	}
+}
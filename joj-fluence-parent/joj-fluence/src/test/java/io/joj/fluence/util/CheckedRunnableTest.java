@@ -0,0 +1,57 @@
+package io.joj.fluence.util;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+
+public class CheckedRunnableTest {
+
+	@Test
+	public void testThenRunPreservesOrder() {
+		List<String> log = new ArrayList<>();
+		CheckedRunnable<RuntimeException> first = () -> log.add("a");
+		CheckedRunnable<RuntimeException> second = first.thenRun(() -> log.add("b"));
+		CheckedRunnable<RuntimeException> third = () -> log.add("c");
+
+		third.thenRun(second).thenRun(third).run();
+
+		assertEquals(log, asList("c", "a", "b", "c"), "run order");
+	}
+
+	@Test
+	public void testBranchingFromLongChain() {
+		List<String> log = new ArrayList<>();
+		CheckedRunnable<RuntimeException> base = () -> log.add("base");
+		for (int i = 0; i < 20; i++) {
+			base = base.thenRun(() -> log.add("base"));
+		}
+		CheckedRunnable<RuntimeException> first = base.thenRun(() -> log.add("first"));
+		CheckedRunnable<RuntimeException> second = base.thenRun(() -> log.add("second"));
+
+		second.run();
+		assertEquals(log.size(), 22, "number of runs");
+		assertEquals(log.get(21), "second", "last run");
+
+		log.clear();
+		first.run();
+		assertEquals(log.size(), 22, "number of runs");
+		assertEquals(log.get(21), "first", "last run");
+	}
+
+	@Test
+	public void testLongChainDoesNotGrowStack() {
+		int[] counter = { 0 };
+		CheckedRunnable<RuntimeException> runnable = () -> counter[0]++;
+		for (int i = 0; i < 10_000; i++) {
+			runnable = runnable.thenRun(() -> counter[0]++);
+		}
+
+		runnable.run();
+
+		assertEquals(counter[0], 10_001, "number of runs");
+	}
+}
@@ -8,11 +8,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
 
 /**
  * @author findepi
@@ -58,4 +62,90 @@ public class CollectorFuTest {
 		expected.put(2, asList("bc", "de"));
 		assertEquals(result, expected, "result");
 	}
+
+	@Test
+	public void testInterning() {
+		InternPool<String> pool = InternPool.bounded(10);
+		String first = new String("PL");
+
+		List<String> result = Stream.of(first, new String("PL"), "DE")
+				.collect(CollectorFu.interning(pool, Collectors.toList()));
+
+		assertEquals(result, asList("PL", "PL", "DE"), "result");
+		assertSame(result.get(1), first, "equal elements should be canonicalized");
+		assertEquals(pool.hitCount(), 1, "hit count");
+	}
+
+	@Test
+	public void testInterningIndexingBy() {
+		InternPool<String> pool = InternPool.bounded(10);
+		String first = new String("PL");
+
+		Map<Integer, List<String>> result = Stream.of(first, "DE", new String("PL"))
+				.collect(CollectorFu.interning(pool, CollectorFu.indexingBy(String::length)));
+
+		assertEquals(result, singletonMap(2, asList("PL", "DE", "PL")), "result");
+		assertSame(result.get(2).get(2), first, "equal elements should be canonicalized");
+		assertEquals(pool.hitCount(), 1, "hit count");
+	}
+
+	@Test
+	public void testIndexingBySharesKeysAcrossMaps() {
+		InternPool<String> keyPool = InternPool.bounded(10);
+
+		Map<String, List<String>> first = Stream.of("PL:a", "PL:b")
+				.collect(CollectorFu.indexingBy(s -> s.substring(0, 2), keyPool));
+		Map<String, List<String>> second = Stream.of("PL:c")
+				.collect(CollectorFu.indexingBy(s -> s.substring(0, 2), keyPool));
+
+		assertEquals(first, singletonMap("PL", asList("PL:a", "PL:b")), "first");
+		assertEquals(second, singletonMap("PL", singletonList("PL:c")), "second");
+		assertSame(second.keySet().iterator().next(), first.keySet().iterator().next(),
+				"maps should share key instance");
+		assertEquals(keyPool.size(), 1, "pool size");
+	}
+
+	@Test
+	public void testProfilingSequential() {
+		CollectorProfile profile = new CollectorProfile();
+
+		List<String> result = Stream.of("a", "bc", "def")
+				.collect(CollectorFu.profiling(Collectors.toList(), profile));
+
+		assertEquals(result, asList("a", "bc", "def"), "result");
+		assertEquals(profile.supplierCalls(), 1, "supplier calls");
+		assertEquals(profile.accumulatorCalls(), 3, "accumulator calls");
+		assertEquals(profile.combinerCalls(), 0, "combiner calls");
+		assertEquals(profile.finisherCalls(), 1, "finisher calls");
+		assertEquals(profile.maxCombineDepth(), 0, "combine depth");
+	}
+
+	@Test
+	public void testProfilingParallel() {
+		CollectorProfile profile = new CollectorProfile();
+
+		List<Integer> result = IntStream.range(0, 10_000).boxed().parallel()
+				.collect(CollectorFu.profiling(Collectors.toList(), profile));
+
+		assertEquals(result.size(), 10_000, "result size");
+		assertEquals(profile.accumulatorCalls(), 10_000, "accumulator calls");
+		assertEquals(profile.combinerCalls(), profile.supplierCalls() - 1, "combiner calls");
+		Assertions.assertThat(profile.maxCombineDepth()).as("combine depth")
+				.isLessThanOrEqualTo(profile.combinerCalls());
+		Assertions.assertThat(profile.maxCombinedContainerSize()).as("max combined container size")
+				.isLessThanOrEqualTo(10_000);
+	}
+
+	@Test
+	public void testProfilingConcurrent() {
+		CollectorProfile profile = new CollectorProfile();
+
+		Map<Integer, Integer> result = IntStream.range(0, 10_000).boxed().parallel()
+				.collect(CollectorFu.profiling(Collectors.toConcurrentMap(i -> i, i -> i), profile));
+
+		assertEquals(result.size(), 10_000, "result size");
+		assertEquals(profile.supplierCalls(), 1, "supplier calls");
+		assertEquals(profile.accumulatorCalls(), 10_000, "accumulator calls");
+		assertEquals(profile.combinerCalls(), 0, "combiner calls");
+	}
 }
@@ -0,0 +1,37 @@
+package io.joj.fluence.util;
+
+import org.assertj.core.api.Assertions;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.assertEquals;
+
+public class CollectorScalabilityTest {
+
+	@Test
+	public void testMeasure() {
+		List<CollectorScalability.Measurement> measurements = CollectorScalability.measure(
+				CollectorFu.indexingBy((Integer i) -> i % 10), i -> i, 1_000, 3, 2);
+
+		assertEquals(measurements.size(), 3, "measurements");
+		for (int i = 0; i < measurements.size(); i++) {
+			CollectorScalability.Measurement measurement = measurements.get(i);
+			assertEquals(measurement.getParallelism(), i + 1, "parallelism");
+			assertEquals(measurement.getProfile().accumulatorCalls(), 1_000, "accumulator calls");
+			Assertions.assertThat(measurement.getNanos()).as("nanos").isPositive();
+		}
+		assertEquals(measurements.get(0).getSpeedup(), 1.0, "speedup at parallelism 1");
+		String report = CollectorScalability.report(measurements);
+		Assertions.assertThat(report.split("\n")).hasSize(4);
+		Assertions.assertThat(report).contains("supplier ns", "accumulator ns", "combiner ns", "finisher ns");
+	}
+
+	@Test
+	public void testMeasureRejectsInvalidParallelism() {
+		Assertions.assertThatThrownBy(() -> CollectorScalability.measure(Collectors.toList(), i -> i, 10, 0, 1))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("maxParallelism must be positive: 0");
+	}
+}
@@ -0,0 +1,108 @@
+package io.joj.fluence.util;
+
+import org.assertj.core.api.Assertions;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+public class InternPoolTest {
+
+	@Test(dataProvider = "poolFactories")
+	public void testInternReturnsCanonicalInstance(IntFunction<InternPool<String>> poolFactory) {
+		// Given
+		InternPool<String> pool = poolFactory.apply(10);
+		String first = new String("PL");
+		String second = new String("PL");
+
+		// When
+		String internedFirst = pool.intern(first);
+		String internedSecond = pool.intern(second);
+
+		// Then
+		assertSame(internedFirst, first);
+		assertSame(internedSecond, first, "equal value should be canonicalized");
+		assertEquals(pool.size(), 1, "size");
+		assertEquals(pool.hitCount(), 1, "hit count");
+		assertEquals(pool.requestCount(), 2, "request count");
+		assertEquals(pool.hitRatio(), 0.5, "hit ratio");
+	}
+
+	@Test(dataProvider = "poolFactories")
+	public void testInternDoesNotExceedMaximumSize(IntFunction<InternPool<String>> poolFactory) {
+		// Given
+		InternPool<String> pool = poolFactory.apply(1);
+		pool.intern("PL");
+
+		// When
+		String value = new String("DE");
+		String interned = pool.intern(value);
+
+		// Then
+		assertSame(interned, value);
+		assertNotSame(pool.intern(new String("DE")), value, "value should not be added to full pool");
+		assertSame(pool.intern(new String("PL")), "PL", "pooled value should still be canonicalized");
+		assertEquals(pool.size(), 1, "size");
+	}
+
+	@Test(dataProvider = "poolFactories")
+	public void testInternRejectsNull(IntFunction<InternPool<String>> poolFactory) {
+		InternPool<String> pool = poolFactory.apply(10);
+
+		Assertions.assertThatThrownBy(() -> pool.intern(null))
+				.isInstanceOf(NullPointerException.class);
+	}
+
+	@Test(dataProvider = "poolFactories")
+	public void testConcurrentInternDoesNotExceedMaximumSize(IntFunction<InternPool<String>> poolFactory) {
+		// Given
+		InternPool<String> pool = poolFactory.apply(100);
+
+		// When
+		IntStream.range(0, 100_000).parallel()
+				.forEach(i -> pool.intern(String.valueOf(i)));
+
+		// Then
+		Assertions.assertThat(pool.size()).as("size").isLessThanOrEqualTo(100);
+	}
+
+	@Test
+	public void testWeakPoolReleasesCollectedInstances() throws InterruptedException {
+		// Given
+		InternPool<String> pool = InternPool.weak(10);
+		for (int i = 0; i < 10; i++) {
+			pool.intern(String.valueOf(i));
+		}
+		assertEquals(pool.size(), 10, "size");
+
+		// When
+		for (int i = 0; i < 100 && pool.size() == 10; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+
+		// Then
+		Assertions.assertThat(pool.size()).as("size after GC").isLessThan(10);
+		String value = new String("PL");
+		assertSame(pool.intern(value), value);
+		assertSame(pool.intern(new String("PL")), value, "value should be added to pool with free space");
+	}
+
+	@Test
+	public void testHitRatioWithoutRequests() {
+		assertEquals(InternPool.bounded(10).hitRatio(), 1.0, "hit ratio");
+	}
+
+	@DataProvider
+	public Object[][] poolFactories() {
+		return new Object[][] {
+				{ (IntFunction<InternPool<String>>) InternPool::bounded },
+				{ (IntFunction<InternPool<String>>) InternPool::weak },
+		};
+	}
+}
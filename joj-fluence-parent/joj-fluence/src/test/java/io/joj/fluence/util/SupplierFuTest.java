@@ -1,5 +1,6 @@
 package io.joj.fluence.util;
 
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -7,8 +8,19 @@ import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
 import static org.testng.Assert.assertEquals;
 
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.Test;
 
 /**
@@ -17,6 +29,22 @@ import org.testng.annotations.Test;
  */
 public class SupplierFuTest {
 
+	private static final Predicate<String> NO_OTHER_CLASSES = className -> false;
+
+	private final List<Path> tempDirectories = new ArrayList<>();
+
+	@AfterMethod(alwaysRun = true)
+	public void deleteTempDirectories() throws IOException {
+		for (Path directory : tempDirectories) {
+			try (Stream<Path> paths = Files.walk(directory)) {
+				for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+					Files.delete(path);
+				}
+			}
+		}
+		tempDirectories.clear();
+	}
+
 	@Test
 	public void testMemoizeMemoizes() {
 		// Given
@@ -56,4 +84,138 @@ public class SupplierFuTest {
 
 		verify(delegate, times(2)).get();
 	}
+
+	@Test
+	public void testMemoizePersistentlySurvivesRestart() throws IOException {
+		// Given
+		Path cacheDirectory = createTempDirectory();
+		AtomicInteger calls = new AtomicInteger();
+		Supplier<String> delegate = () -> "value " + calls.incrementAndGet();
+
+		// When
+		Supplier<String> first = SupplierFu.memoizePersistently(delegate, String.class, NO_OTHER_CLASSES,
+				cacheDirectory, "schema", "v1");
+		Supplier<String> second = SupplierFu.memoizePersistently(delegate, String.class, NO_OTHER_CLASSES,
+				cacheDirectory, "schema", "v1");
+
+		// Then
+		assertEquals(first.get(), "value 1", "memoizing returned wrong value");
+		assertEquals(first.get(), "value 1", "memoizing returned wrong value");
+		assertEquals(second.get(), "value 1", "value should be read from the cache file");
+		assertEquals(calls.get(), 1, "delegate calls");
+	}
+
+	@Test
+	public void testMemoizePersistentlyIgnoresStaleVersion() throws IOException {
+		// Given
+		Path cacheDirectory = createTempDirectory();
+		AtomicInteger calls = new AtomicInteger();
+		Supplier<String> delegate = () -> "value " + calls.incrementAndGet();
+		SupplierFu.memoizePersistently(delegate, String.class, NO_OTHER_CLASSES,
+				cacheDirectory, "schema", "v1").get();
+
+		// When
+		Supplier<String> upgraded = SupplierFu.memoizePersistently(delegate, String.class, NO_OTHER_CLASSES,
+				cacheDirectory, "schema", "v2");
+		Supplier<String> restarted = SupplierFu.memoizePersistently(delegate, String.class, NO_OTHER_CLASSES,
+				cacheDirectory, "schema", "v2");
+
+		// Then
+		assertEquals(upgraded.get(), "value 2", "stale value should not be used");
+		assertEquals(restarted.get(), "value 2", "value should be read from the cache file");
+		assertEquals(calls.get(), 2, "delegate calls");
+	}
+
+	@Test
+	public void testMemoizePersistentlyIgnoresCorruptedFile() throws IOException {
+		// Given
+		Path cacheDirectory = createTempDirectory();
+		Files.write(cacheDirectory.resolve("schema.memo"), new byte[] { 1, 2, 3 });
+
+		// When
+		Supplier<String> memoizing = SupplierFu.memoizePersistently(() -> "b", String.class, NO_OTHER_CLASSES,
+				cacheDirectory, "schema", "v1");
+
+		// Then
+		assertEquals(memoizing.get(), "b", "memoizing returned wrong value");
+	}
+
+	@Test
+	public void testMemoizePersistentlyIgnoresValueOfOtherType() throws IOException {
+		// Given
+		Path cacheDirectory = createTempDirectory();
+		SupplierFu.memoizePersistently(() -> 42, Integer.class, NO_OTHER_CLASSES,
+				cacheDirectory, "schema", "v1").get();
+
+		// When
+		Supplier<String> memoizing = SupplierFu.memoizePersistently(() -> "b", String.class, NO_OTHER_CLASSES,
+				cacheDirectory, "schema", "v1");
+
+		// Then
+		assertEquals(memoizing.get(), "b", "value of other type should not be used");
+	}
+
+	@Test
+	public void testMemoizePersistentlyReadsAllowedClasses() throws IOException {
+		// Given
+		Path cacheDirectory = createTempDirectory();
+		AtomicInteger calls = new AtomicInteger();
+		Supplier<List<Rule>> delegate = () -> singletonList(new Rule("rule " + calls.incrementAndGet()));
+		Predicate<String> allowedClasses = Rule.class.getName()::equals;
+
+		// When
+		SupplierFu.memoizePersistently(delegate, List.class, allowedClasses, cacheDirectory, "rules", "v1").get();
+		Supplier<List<Rule>> restarted = SupplierFu.memoizePersistently(delegate, List.class, allowedClasses,
+				cacheDirectory, "rules", "v1");
+
+		// Then
+		assertEquals(restarted.get().get(0).name, "rule 1", "value should be read from the cache file");
+		assertEquals(calls.get(), 1, "delegate calls");
+	}
+
+	@Test
+	public void testMemoizePersistentlyIgnoresValueOfNotAllowedClass() throws IOException {
+		// Given
+		Path cacheDirectory = createTempDirectory();
+		AtomicInteger calls = new AtomicInteger();
+		Supplier<List<Rule>> delegate = () -> singletonList(new Rule("rule " + calls.incrementAndGet()));
+
+		// When
+		SupplierFu.memoizePersistently(delegate, List.class, NO_OTHER_CLASSES, cacheDirectory, "rules", "v1").get();
+		Supplier<List<Rule>> restarted = SupplierFu.memoizePersistently(delegate, List.class, NO_OTHER_CLASSES,
+				cacheDirectory, "rules", "v1");
+
+		// Then
+		assertEquals(restarted.get().get(0).name, "rule 2", "value of not allowed class should not be used");
+		assertEquals(calls.get(), 2, "delegate calls");
+	}
+
+	@Test
+	public void testMemoizePersistentlyIgnoresNotSerializableValue() throws IOException {
+		// Given
+		Path cacheDirectory = createTempDirectory();
+
+		// When
+		Supplier<Object> memoizing = SupplierFu.memoizePersistently(Object::new, Object.class, NO_OTHER_CLASSES,
+				cacheDirectory, "object", "v1");
+
+		// Then
+		assertEquals(memoizing.get(), memoizing.get(), "value should be memoized");
+	}
+
+	private Path createTempDirectory() throws IOException {
+		Path directory = Files.createTempDirectory("memo");
+		tempDirectories.add(directory);
+		return directory;
+	}
+
+	private static final class Rule implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final String name;
+
+		Rule(String name) {
+			this.name = name;
+		}
+	}
 }